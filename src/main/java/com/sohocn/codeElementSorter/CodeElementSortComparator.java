@@ -1,10 +1,15 @@
 package com.sohocn.codeElementSorter;
 
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiMember;
+import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiParameter;
 import com.intellij.psi.PsiType;
 
 /**
@@ -13,6 +18,92 @@ import com.intellij.psi.PsiType;
  * @author longjianghu
  */
 public class CodeElementSortComparator implements Comparator<PsiMember> {
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private static final int RANK_GETTER = 1;
+
+    private static final int RANK_PLAIN = 0;
+
+    private static final int RANK_SETTER = 2;
+
+    private final Map<PsiMember, String> groupKeys;
+
+    /**
+     * Instantiates a new Code element sort comparator.
+     */
+    public CodeElementSortComparator() {
+        this(null);
+    }
+
+    /**
+     * Instantiates a new Code element sort comparator.
+     *
+     * @param groupKeys
+     *            the compound keys used instead of the plain name, may be null
+     */
+    public CodeElementSortComparator(Map<PsiMember, String> groupKeys) {
+        this.groupKeys = groupKeys;
+    }
+
+    /**
+     * 一次哈希遍历构建方法的复合排序键：属性名 → 访问器类型 → 参数个数 → 参数类型，
+     * 使 getFoo/isFoo/setFoo 相邻，重载方法按参数排序。
+     *
+     * @param members
+     *            the members
+     * @return the compound keys by member
+     */
+    public static Map<PsiMember, String> buildGroupKeys(List<? extends PsiMember> members) {
+        Map<PsiMember, String> groupKeys = new HashMap<>(members.size() * 2);
+        for (PsiMember member : members) {
+            if (member instanceof PsiMethod) {
+                groupKeys.put(member, buildMethodKey((PsiMethod) member));
+            }
+        }
+        return groupKeys;
+    }
+
+    private static String buildMethodKey(PsiMethod method) {
+        String name = method.getName();
+        PsiParameter[] parameters = method.getParameterList().getParameters();
+        PsiType returnType = method.getReturnType();
+
+        String property = name;
+        int rank = RANK_PLAIN;
+
+        if (returnType != null) {
+            String returnTypeName = returnType.getCanonicalText();
+
+            if (parameters.length == 0 && isAccessorName(name, "get") && !"void".equals(returnTypeName)) {
+                property = name.substring(3);
+                rank = RANK_GETTER;
+            } else if (parameters.length == 0 && isAccessorName(name, "is") && "boolean".equals(returnTypeName)) {
+                property = name.substring(2);
+                rank = RANK_GETTER;
+            } else if (parameters.length == 1 && isAccessorName(name, "set")) {
+                property = name.substring(3);
+                rank = RANK_SETTER;
+            }
+        }
+
+        StringBuilder key = new StringBuilder(property.toLowerCase())
+            .append(KEY_SEPARATOR)
+            .append(rank)
+            .append(KEY_SEPARATOR)
+            .append(String.format("%03d", parameters.length));
+
+        for (PsiParameter parameter : parameters) {
+            key.append(KEY_SEPARATOR).append(parameter.getType().getCanonicalText());
+        }
+
+        return key.toString();
+    }
+
+    private static boolean isAccessorName(String name, String prefix) {
+        return name.length() > prefix.length() && name.startsWith(prefix)
+            && Character.isUpperCase(name.charAt(prefix.length()));
+    }
+
     @Override
     public int compare(PsiMember member1, PsiMember member2) {
         int typeComparison = this.compareByType(member1, member2);
@@ -58,6 +149,15 @@ public class CodeElementSortComparator implements Comparator<PsiMember> {
     }
 
     private int compareByName(PsiMember member1, PsiMember member2) {
+        if (this.groupKeys != null) {
+            String key1 = this.groupKeys.get(member1);
+            String key2 = this.groupKeys.get(member2);
+
+            if (key1 != null && key2 != null) {
+                return key1.compareTo(key2);
+            }
+        }
+
         String name1 = member1.getName();
         String name2 = member2.getName();
 
@@ -0,0 +1,179 @@
+package com.sohocn.codeElementSorter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.intellij.psi.JavaRecursiveElementWalkingVisitor;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiReferenceExpression;
+
+/**
+ * 保证字段排序后不会出现前向引用：例如 {@code static final int B = A * 2;} 不能排到 {@code A} 前面。
+ * 一次访问所有初始化表达式建立依赖图，再用优先队列版 Kahn 算法把拓扑顺序和排序规则合并，复杂度 O(n log n + e)。
+ *
+ * @author longjianghu
+ */
+public class FieldDependencyOrder {
+    private FieldDependencyOrder() {
+    }
+
+    /**
+     * 就地调整已排好序的字段分组。被依赖的字段位于更靠后的分组时，依赖它的字段会移到同一分组中。
+     *
+     * @param groups
+     *            the field groups in output order, each already sorted
+     * @param comparator
+     *            the comparator used inside a group
+     */
+    public static void apply(List<List<PsiField>> groups, Comparator<? super PsiField> comparator) {
+        List<PsiField> fields = new ArrayList<>();
+        List<Integer> groupOf = new ArrayList<>();
+        for (int g = 0; g < groups.size(); g++) {
+            for (PsiField field : groups.get(g)) {
+                fields.add(field);
+                groupOf.add(g);
+            }
+        }
+
+        int size = fields.size();
+        List<List<Integer>> dependents = buildDependents(fields);
+
+        if (dependents == null) {
+            return;
+        }
+
+        int[] inDegree = new int[size];
+        for (List<Integer> targets : dependents) {
+            for (int target : targets) {
+                inDegree[target]++;
+            }
+        }
+
+        // 第一遍：按拓扑顺序把依赖方提升到被依赖字段所在的分组
+        int[] effectiveGroup = new int[size];
+        int[] remaining = inDegree.clone();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int i = 0; i < size; i++) {
+            effectiveGroup[i] = groupOf.get(i);
+            if (remaining[i] == 0) {
+                queue.add(i);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            for (int target : dependents.get(current)) {
+                effectiveGroup[target] = Math.max(effectiveGroup[target], effectiveGroup[current]);
+                if (--remaining[target] == 0) {
+                    queue.add(target);
+                }
+            }
+        }
+
+        // 第二遍：每个分组内用优先队列执行 Kahn 算法，可选字段中总是先取排序规则最小的
+        Comparator<Integer> order = (a, b) -> {
+            int comparison = comparator.compare(fields.get(a), fields.get(b));
+            return comparison != 0 ? comparison : Integer.compare(a, b);
+        };
+
+        // 一次遍历按分组收集字段下标，避免每个分组都扫描全部字段
+        List<List<Integer>> buckets = new ArrayList<>(groups.size());
+        for (int g = 0; g < groups.size(); g++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (int i = 0; i < size; i++) {
+            buckets.get(effectiveGroup[i]).add(i);
+        }
+
+        for (int g = 0; g < groups.size(); g++) {
+            List<PsiField> group = groups.get(g);
+            group.clear();
+
+            List<Integer> members = buckets.get(g);
+            if (members.isEmpty()) {
+                continue;
+            }
+
+            PriorityQueue<Integer> ready = new PriorityQueue<>(members.size(), order);
+            for (int i : members) {
+                if (inDegree[i] == 0) {
+                    ready.add(i);
+                }
+            }
+
+            while (!ready.isEmpty()) {
+                int current = ready.poll();
+                group.add(fields.get(current));
+                for (int target : dependents.get(current)) {
+                    if (--inDegree[target] == 0 && effectiveGroup[target] == g) {
+                        ready.add(target);
+                    }
+                }
+            }
+
+            // 循环依赖（无法满足）时其余字段保持排序规则的顺序
+            if (group.size() < members.size()) {
+                members.sort(order);
+                for (int i : members) {
+                    if (inDegree[i] > 0) {
+                        group.add(fields.get(i));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 一次访问所有初始化表达式，返回 被依赖字段 → 依赖它的字段 的邻接表，没有任何依赖时返回 null。
+     */
+    private static List<List<Integer>> buildDependents(List<PsiField> fields) {
+        Map<String, Integer> indexByName = new HashMap<>(fields.size() * 2);
+        for (int i = 0; i < fields.size(); i++) {
+            indexByName.put(fields.get(i).getName(), i);
+        }
+
+        List<List<Integer>> dependents = new ArrayList<>(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            dependents.add(new ArrayList<>(0));
+        }
+
+        int[] current = new int[1];
+        boolean[] found = new boolean[1];
+        JavaRecursiveElementWalkingVisitor visitor = new JavaRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitReferenceExpression(PsiReferenceExpression expression) {
+                super.visitReferenceExpression(expression);
+
+                Integer dependency = indexByName.get(expression.getReferenceName());
+                if (dependency == null || dependency == current[0]) {
+                    return;
+                }
+
+                // 只在名称命中时才解析；静态字段只依赖静态字段，实例字段只依赖实例字段
+                PsiField target = fields.get(dependency);
+                PsiField source = fields.get(current[0]);
+                if (target.hasModifierProperty(PsiModifier.STATIC) == source.hasModifierProperty(PsiModifier.STATIC)
+                    && expression.resolve() == target) {
+                    dependents.get(dependency).add(current[0]);
+                    found[0] = true;
+                }
+            }
+        };
+
+        for (int i = 0; i < fields.size(); i++) {
+            PsiExpression initializer = fields.get(i).getInitializer();
+            if (initializer != null) {
+                current[0] = i;
+                initializer.accept(visitor);
+            }
+        }
+
+        return found[0] ? dependents : null;
+    }
+}
@@ -0,0 +1,113 @@
+package com.sohocn.codeElementSorter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMember;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+
+/**
+ * 按实现接口中的声明顺序给方法排名。每个接口连同其父接口展开后的方法顺序缓存在接口上，
+ * 在一次排序中（外部类及其内部类实现同一接口时）只计算一次；任何 Java 修改都会使缓存失效，包括排序自身的写操作。
+ *
+ * @author longjianghu
+ */
+public class InterfaceMethodOrder {
+    private InterfaceMethodOrder() {
+    }
+
+    /**
+     * 计算类所实现接口（含父接口）的方法顺序：按 implements 声明顺序合并各接口已缓存的展开顺序。
+     *
+     * @param psiClass
+     *            the implementing class
+     * @return the rank by method key, empty if the class implements no interface
+     */
+    public static Map<String, Integer> forClass(PsiClass psiClass) {
+        PsiClass[] interfaces = psiClass.getInterfaces();
+
+        if (interfaces.length == 0) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Integer> ranks = new HashMap<>();
+        for (PsiClass psiInterface : interfaces) {
+            if (psiInterface.isInterface()) {
+                for (String key : getFlattenedOrder(psiInterface)) {
+                    ranks.putIfAbsent(key, ranks.size());
+                }
+            }
+        }
+        return ranks;
+    }
+
+    /**
+     * Method key, 名称 + 参数个数，避免泛型参数替换带来的解析开销。
+     *
+     * @param method
+     *            the method
+     * @return the key
+     */
+    public static String methodKey(PsiMethod method) {
+        return method.getName() + "/" + method.getParameterList().getParametersCount();
+    }
+
+    /**
+     * Rank of the member, {@link Integer#MAX_VALUE} when it does not implement an interface method. 静态方法和私有方法
+     * 不可能实现接口方法，即使名称和参数个数相同也不参与排名。
+     *
+     * @param ranks
+     *            the ranks from {@link #forClass(PsiClass)}
+     * @param member
+     *            the member
+     * @return the rank
+     */
+    public static int rankOf(Map<String, Integer> ranks, PsiMember member) {
+        if (!(member instanceof PsiMethod) || member.hasModifierProperty(PsiModifier.STATIC)
+            || member.hasModifierProperty(PsiModifier.PRIVATE)) {
+            return Integer.MAX_VALUE;
+        }
+        return ranks.getOrDefault(methodKey((PsiMethod) member), Integer.MAX_VALUE);
+    }
+
+    private static void collectKeys(PsiClass psiInterface, Set<String> keys, Set<PsiClass> visited) {
+        if (!psiInterface.isInterface() || !visited.add(psiInterface)) {
+            return;
+        }
+
+        for (PsiMethod method : psiInterface.getMethods()) {
+            // 接口静态方法不会被实现
+            if (!method.hasModifierProperty(PsiModifier.STATIC)) {
+                keys.add(methodKey(method));
+            }
+        }
+
+        for (PsiClass superInterface : psiInterface.getInterfaces()) {
+            collectKeys(superInterface, keys, visited);
+        }
+    }
+
+    /**
+     * 接口的展开顺序：先自身方法，再依次展开父接口，去重后缓存在接口上，任何 Java 修改时失效。
+     */
+    private static List<String> getFlattenedOrder(PsiClass psiInterface) {
+        return CachedValuesManager.getCachedValue(psiInterface, () -> {
+            Set<String> keys = new LinkedHashSet<>();
+            collectKeys(psiInterface, keys, new HashSet<>());
+            return CachedValueProvider.Result.create(new ArrayList<>(keys),
+                PsiModificationTracker.getInstance(psiInterface.getProject()).forLanguage(JavaLanguage.INSTANCE));
+        });
+    }
+}
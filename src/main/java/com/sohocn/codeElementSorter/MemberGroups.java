@@ -0,0 +1,367 @@
+package com.sohocn.codeElementSorter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDocCommentOwner;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMember;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+
+/**
+ * 一个类的排序计划：静态字段 → 普通实例字段 → 注解实例字段 → 方法 → 内部类，各组已排好序。
+ * 开启内存布局模式时，普通实例字段按宽度排列，注解实例字段分组改为依次存放各填充分组，分组之间空一行。
+ *
+ * @author longjianghu
+ */
+public class MemberGroups {
+    // 单例 Comparator，避免重复创建
+    private static final CodeElementSortComparator COMPARATOR = new CodeElementSortComparator();
+
+    private final List<PsiField> annotatedInstanceFields = new ArrayList<>();
+
+    private final List<PsiClass> innerClasses = new ArrayList<>();
+
+    private final List<PsiMethod> methods = new ArrayList<>();
+
+    private final Set<PsiField> paddedGroupEnds = new HashSet<>();
+
+    private final List<List<PsiField>> paddedGroups = new ArrayList<>();
+
+    private final List<PsiField> regularInstanceFields = new ArrayList<>();
+
+    private final List<PsiField> staticFields = new ArrayList<>();
+
+    private MemberGroups() {
+    }
+
+    /**
+     * 一次遍历完成分类，并对各组排序。
+     *
+     * @param psiClass
+     *            the psi class
+     * @param sortableMembers
+     *            the fields and methods of the class
+     * @param settings
+     *            the settings
+     * @return the member groups
+     */
+    public static MemberGroups create(PsiClass psiClass, List<PsiMember> sortableMembers, SortSettings settings) {
+        MemberGroups groups = new MemberGroups();
+
+        FieldOrder fieldOrder = FieldOrder.of(settings);
+        Comparator<? super PsiField> fieldComparator = fieldOrder.comparator;
+        Map<PsiField, String> paddedKeys = new HashMap<>();
+
+        for (PsiMember member : sortableMembers) {
+            if (member instanceof PsiField) {
+                PsiField field = (PsiField) member;
+                if (field.hasModifierProperty(PsiModifier.STATIC)) {
+                    groups.staticFields.add(field);
+                } else if (fieldOrder.memoryLayout) {
+                    String paddedKey = MemoryLayoutOrder.paddedGroupKey(field, fieldOrder.paddedPattern);
+                    if (paddedKey != null) {
+                        groups.annotatedInstanceFields.add(field);
+                        paddedKeys.put(field, paddedKey);
+                    } else {
+                        groups.regularInstanceFields.add(field);
+                    }
+                } else if (field.getAnnotations().length > 0) {
+                    groups.annotatedInstanceFields.add(field);
+                } else {
+                    groups.regularInstanceFields.add(field);
+                }
+            } else if (member instanceof PsiMethod) {
+                groups.methods.add((PsiMethod) member);
+            }
+        }
+
+        for (PsiElement element : psiClass.getChildren()) {
+            if (element instanceof PsiClass && element != psiClass) {
+                groups.innerClasses.add((PsiClass) element);
+            }
+        }
+
+        groups.staticFields.sort(fieldComparator);
+        groups.regularInstanceFields.sort(fieldComparator);
+        groups.annotatedInstanceFields.sort(fieldComparator);
+
+        if (paddedKeys.isEmpty()) {
+            FieldDependencyOrder.apply(Arrays.asList(groups.staticFields, groups.regularInstanceFields,
+                groups.annotatedInstanceFields), fieldComparator);
+        } else {
+            groups.applyPaddedGroups(paddedKeys, fieldComparator);
+        }
+        groups.methods.sort(createComparator(psiClass, groups.methods, settings));
+
+        return groups;
+    }
+
+    /**
+     * Create comparator.
+     *
+     * @param psiClass
+     *            the class that owns the members
+     * @param members
+     *            the members to be sorted
+     * @param settings
+     *            the settings
+     * @return the comparator
+     */
+    public static Comparator<PsiMember> createComparator(PsiClass psiClass, List<? extends PsiMember> members,
+                                                         SortSettings settings) {
+        CodeElementSortComparator comparator = settings.groupAccessorsAndOverloads
+            ? new CodeElementSortComparator(CodeElementSortComparator.buildGroupKeys(members))
+            : COMPARATOR;
+
+        if (!settings.interfaceMethodOrder) {
+            return comparator;
+        }
+
+        Map<String, Integer> ranks = InterfaceMethodOrder.forClass(psiClass);
+        if (ranks.isEmpty()) {
+            return comparator;
+        }
+
+        // 实现接口的方法按接口声明顺序排在前面，其余方法仍按原规则排序
+        return (member1, member2) -> {
+            if (member1 instanceof PsiMethod && member2 instanceof PsiMethod) {
+                int rankComparison = Integer
+                    .compare(InterfaceMethodOrder.rankOf(ranks, member1), InterfaceMethodOrder.rankOf(ranks, member2));
+
+                if (rankComparison != 0) {
+                    return rankComparison;
+                }
+            }
+            return comparator.compare(member1, member2);
+        };
+    }
+
+    /**
+     * 按键拆分填充分组（分组顺序取组内第一个字段的排序位置），前向引用保护作用于各分组，最后合并回注解实例字段分组。
+     */
+    private void applyPaddedGroups(Map<PsiField, String> paddedKeys, Comparator<? super PsiField> fieldComparator) {
+        Map<String, List<PsiField>> byKey = new LinkedHashMap<>();
+        for (PsiField field : this.annotatedInstanceFields) {
+            byKey.computeIfAbsent(paddedKeys.get(field), key -> new ArrayList<>()).add(field);
+        }
+        this.paddedGroups.addAll(byKey.values());
+
+        List<List<PsiField>> fieldGroups = new ArrayList<>(this.paddedGroups.size() + 2);
+        fieldGroups.add(this.staticFields);
+        fieldGroups.add(this.regularInstanceFields);
+        fieldGroups.addAll(this.paddedGroups);
+        FieldDependencyOrder.apply(fieldGroups, fieldComparator);
+
+        // 依赖调整后可能出现空分组
+        this.paddedGroups.removeIf(List::isEmpty);
+        this.annotatedInstanceFields.clear();
+        for (List<PsiField> paddedGroup : this.paddedGroups) {
+            this.annotatedInstanceFields.addAll(paddedGroup);
+            this.paddedGroupEnds.add(paddedGroup.get(paddedGroup.size() - 1));
+        }
+    }
+
+    /**
+     * Collect the fields and methods that are direct children of the class.
+     *
+     * @param psiClass
+     *            the psi class
+     * @return the sortable members
+     */
+    public static List<PsiMember> collectSortableMembers(PsiClass psiClass) {
+        List<PsiMember> members = new ArrayList<>();
+        for (PsiElement element : psiClass.getChildren()) {
+            if ((element instanceof PsiField || element instanceof PsiMethod)) {
+                members.add((PsiMember) element);
+            }
+        }
+        return members;
+    }
+
+    /**
+     * 对选中的成员排序：字段在前、方法在后，字段顺序保证不会出现前向引用。
+     *
+     * @param psiClass
+     *            the class that owns the members
+     * @param members
+     *            the selected members, sorted in place
+     * @param settings
+     *            the settings
+     */
+    public static void sortSelection(PsiClass psiClass, List<PsiMember> members, SortSettings settings) {
+        members.sort(createComparator(psiClass, members, settings));
+
+        List<PsiField> fields = new ArrayList<>();
+        while (fields.size() < members.size() && members.get(fields.size()) instanceof PsiField) {
+            fields.add((PsiField) members.get(fields.size()));
+        }
+
+        // 与全量排序使用同一个字段排序规则（包括内存布局模式）
+        Comparator<? super PsiField> fieldComparator = FieldOrder.of(settings).comparator;
+        fields.sort(fieldComparator);
+        FieldDependencyOrder.apply(Collections.singletonList(fields), fieldComparator);
+        for (int i = 0; i < fields.size(); i++) {
+            members.set(i, fields.get(i));
+        }
+    }
+
+    /**
+     * Has javadoc comment.
+     *
+     * @param element
+     *            the element
+     * @return true if the element owns a javadoc comment
+     */
+    public static boolean hasJavadocComment(PsiElement element) {
+        return element instanceof PsiDocCommentOwner && ((PsiDocCommentOwner) element).getDocComment() != null;
+    }
+
+    public List<PsiField> getAnnotatedInstanceFields() {
+        return this.annotatedInstanceFields;
+    }
+
+    public List<PsiClass> getInnerClasses() {
+        return this.innerClasses;
+    }
+
+    public List<PsiMethod> getMethods() {
+        return this.methods;
+    }
+
+    /**
+     * 内存布局模式下的填充分组，按输出顺序排列；未开启或没有填充字段时为空。
+     *
+     * @return the padded groups
+     */
+    public List<List<PsiField>> getPaddedGroups() {
+        return this.paddedGroups;
+    }
+
+    /**
+     * 按最终顺序返回所有成员。
+     *
+     * @return the ordered members
+     */
+    public List<PsiMember> getOrderedMembers() {
+        List<PsiMember> ordered = new ArrayList<>(this.size());
+        for (List<? extends PsiMember> group : this.groups()) {
+            ordered.addAll(group);
+        }
+        return ordered;
+    }
+
+    public List<PsiField> getRegularInstanceFields() {
+        return this.regularInstanceFields;
+    }
+
+    public List<PsiField> getStaticFields() {
+        return this.staticFields;
+    }
+
+    /**
+     * 按 {@code getOrderedMembers()} 的下标返回每个成员后面是否需要空行，规则与 SortAction#addMembersWithSpacing 一致。
+     *
+     * @return the blank line flags
+     */
+    public boolean[] getBlankLineAfterFlags() {
+        List<List<? extends PsiMember>> groups = this.groups();
+        boolean[] flags = new boolean[this.size()];
+
+        int index = 0;
+        for (int g = 0; g < groups.size(); g++) {
+            List<? extends PsiMember> group = groups.get(g);
+
+            for (int i = 0; i < group.size(); i++, index++) {
+                PsiMember member = group.get(i);
+
+                if (i == group.size() - 1) {
+                    flags[index] = this.hasMembersAfterGroup(groups, g);
+                } else if (group == this.staticFields) {
+                    flags[index] = hasJavadocComment(member) || member.getAnnotations().length > 0;
+                } else if (group == this.annotatedInstanceFields) {
+                    // 填充分组之间空一行，未分组时每个注解字段后都空一行
+                    flags[index] = this.paddedGroups.isEmpty() || this.paddedGroupEnds.contains(member);
+                } else if (group == this.innerClasses) {
+                    flags[index] = true;
+                } else {
+                    flags[index] = hasJavadocComment(member);
+                }
+            }
+        }
+
+        return flags;
+    }
+
+    /**
+     * Size.
+     *
+     * @return the total number of members
+     */
+    public int size() {
+        return this.staticFields.size() + this.regularInstanceFields.size() + this.annotatedInstanceFields.size()
+            + this.methods.size() + this.innerClasses.size();
+    }
+
+    private List<List<? extends PsiMember>> groups() {
+        List<List<? extends PsiMember>> groups = new ArrayList<>(5);
+        Collections.addAll(groups, this.staticFields, this.regularInstanceFields, this.annotatedInstanceFields,
+            this.methods, this.innerClasses);
+        return groups;
+    }
+
+    private boolean hasMembersAfterGroup(List<List<? extends PsiMember>> groups, int groupIndex) {
+        for (int g = groupIndex + 1; g < groups.size(); g++) {
+            if (!groups.get(g).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 字段排序规则和填充字段匹配规则，按设置缓存，设置变化时才重新构建。
+     */
+    private static final class FieldOrder {
+        private static volatile FieldOrder cached;
+
+        private final Comparator<? super PsiField> comparator;
+
+        private final boolean memoryLayout;
+
+        private final Pattern paddedPattern;
+
+        private final String paddedPatternText;
+
+        private FieldOrder(boolean memoryLayout, String paddedPatternText) {
+            this.memoryLayout = memoryLayout;
+            this.paddedPatternText = paddedPatternText;
+            this.comparator = memoryLayout ? MemoryLayoutOrder.comparator(COMPARATOR) : COMPARATOR;
+            this.paddedPattern = memoryLayout ? MemoryLayoutOrder.compilePattern(paddedPatternText) : null;
+        }
+
+        private static FieldOrder of(SortSettings settings) {
+            FieldOrder current = cached;
+
+            if (current == null || current.memoryLayout != settings.memoryLayoutFieldOrder
+                || !Objects.equals(current.paddedPatternText, settings.paddedFieldPattern)) {
+                current = new FieldOrder(settings.memoryLayoutFieldOrder, settings.paddedFieldPattern);
+                cached = current;
+            }
+            return current;
+        }
+    }
+}
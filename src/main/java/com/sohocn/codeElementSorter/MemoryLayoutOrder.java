@@ -0,0 +1,130 @@
+package com.sohocn.codeElementSorter;
+
+import java.util.Comparator;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiAnnotationMemberValue;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiLiteralExpression;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiPrimitiveType;
+import com.intellij.psi.PsiType;
+
+/**
+ * 内存布局字段排序：实例字段按宽度分组（long/double → int/float → short/char → byte/boolean → 引用），
+ * 带 {@code @Contended} 或名称匹配配置规则的字段按填充分组排列。
+ *
+ * @author longjianghu
+ */
+public class MemoryLayoutOrder {
+    private static final int REFERENCE_WIDTH_RANK = 4;
+
+    private MemoryLayoutOrder() {
+    }
+
+    /**
+     * 实例字段先按宽度排序，再按原规则排序；静态字段不参与对象布局，保持原规则。
+     *
+     * @param base
+     *            the comparator used within a width
+     * @return the comparator
+     */
+    public static Comparator<PsiField> comparator(Comparator<? super PsiField> base) {
+        return (field1, field2) -> {
+            if (!field1.hasModifierProperty(PsiModifier.STATIC) && !field2.hasModifierProperty(PsiModifier.STATIC)) {
+                int widthComparison = Integer.compare(widthRank(field1), widthRank(field2));
+
+                if (widthComparison != 0) {
+                    return widthComparison;
+                }
+            }
+            return base.compare(field1, field2);
+        };
+    }
+
+    /**
+     * Compile the padded field name pattern.
+     *
+     * @param regex
+     *            the regex from the settings
+     * @return the pattern, or null if empty or invalid
+     */
+    public static Pattern compilePattern(String regex) {
+        if (regex == null || regex.trim().isEmpty()) {
+            return null;
+        }
+
+        try {
+            return Pattern.compile(regex.trim());
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 填充分组的键：{@code @Contended("tag")} 按标签分组，不带标签的 {@code @Contended} 字段各自单独成组
+     * （jdk.internal.vm.annotation 或 sun.misc），仅名称匹配规则的字段合为一组。
+     *
+     * @param field
+     *            the field
+     * @param paddedPattern
+     *            the padded field name pattern, may be null
+     * @return the padded group key, or null if the field is not padded
+     */
+    public static String paddedGroupKey(PsiField field, Pattern paddedPattern) {
+        for (PsiAnnotation annotation : field.getAnnotations()) {
+            String name = annotation.getQualifiedName();
+
+            if (name != null && (name.equals("Contended") || name.endsWith(".Contended"))) {
+                String tag = contendedTag(annotation);
+                return tag.isEmpty() ? "field:" + field.getName() : "tag:" + tag;
+            }
+        }
+
+        if (paddedPattern != null && paddedPattern.matcher(field.getName()).matches()) {
+            return "pattern";
+        }
+        return null;
+    }
+
+    private static String contendedTag(PsiAnnotation annotation) {
+        PsiAnnotationMemberValue value = annotation.findDeclaredAttributeValue("value");
+
+        if (value == null) {
+            return "";
+        }
+
+        if (value instanceof PsiLiteralExpression) {
+            Object literal = ((PsiLiteralExpression) value).getValue();
+            return literal instanceof String ? (String) literal : value.getText();
+        }
+        return value.getText();
+    }
+
+    private static int widthRank(PsiField field) {
+        PsiType type = field.getType();
+
+        if (!(type instanceof PsiPrimitiveType)) {
+            return REFERENCE_WIDTH_RANK;
+        }
+
+        switch (type.getCanonicalText()) {
+            case "long":
+            case "double":
+                return 0;
+            case "int":
+            case "float":
+                return 1;
+            case "short":
+            case "char":
+                return 2;
+            case "byte":
+            case "boolean":
+                return 3;
+            default:
+                return REFERENCE_WIDTH_RANK;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.sohocn.codeElementSorter;
+
+import javax.swing.JComponent;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.diff.DiffContentFactory;
+import com.intellij.diff.DiffManager;
+import com.intellij.diff.DiffRequestPanel;
+import com.intellij.diff.requests.DiffRequest;
+import com.intellij.diff.requests.SimpleDiffRequest;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.PlatformDataKeys;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.ui.JBUI;
+
+/**
+ * The type Preview sort action.
+ *
+ * @author longjianghu
+ */
+public class PreviewSortAction extends AnAction {
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        Editor editor = e.getData(PlatformDataKeys.EDITOR);
+        PsiFile psiFile = e.getData(PlatformDataKeys.PSI_FILE);
+
+        if (project == null || editor == null || psiFile == null) {
+            Messages.showErrorDialog("No active project, editor, or file found", "Error");
+            return;
+        }
+
+        if (!(psiFile instanceof PsiJavaFile)) {
+            Messages.showErrorDialog("File is not a Java file", "Error");
+            return;
+        }
+
+        Document document = editor.getDocument();
+        SortSettings settings = SortSettings.getInstance();
+
+        // 在后台读操作中只构建文本计划，不触碰 PSI 写操作
+        ReadAction
+            .nonBlocking(() -> this.buildPreview((PsiJavaFile)psiFile, document, settings))
+            .withDocumentsCommitted(project)
+            .expireWith(project)
+            .finishOnUiThread(ModalityState.defaultModalityState(), preview -> this.showPreview(project, document, preview))
+            .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        PsiFile psiFile = e.getData(PlatformDataKeys.PSI_FILE);
+        boolean isJavaFile = psiFile instanceof PsiJavaFile;
+        e.getPresentation().setEnabledAndVisible(isJavaFile);
+    }
+
+    private Preview buildPreview(PsiJavaFile javaFile, Document document, SortSettings settings) {
+        PsiClass[] classes = javaFile.getClasses();
+
+        if (classes.length == 0) {
+            return null;
+        }
+
+        TextSortPlan plan = TextSortPlan.create(classes[0], settings);
+
+        if (plan == null) {
+            return null;
+        }
+
+        CharSequence text = document.getImmutableCharSequence();
+        return new Preview(document.getModificationStamp(), text.toString(), plan.getBodyRange(),
+            plan.renderBody(text));
+    }
+
+    private void showPreview(@NotNull Project project, Document document, Preview preview) {
+        if (preview == null) {
+            Messages.showInfoMessage("No sortable elements found", "Info");
+            return;
+        }
+
+        String sortedText = preview.bodyRange.replace(preview.originalText, preview.sortedBody);
+
+        if (sortedText.equals(preview.originalText)) {
+            Messages.showInfoMessage("Members are already sorted", "Info");
+            return;
+        }
+
+        DiffContentFactory contentFactory = DiffContentFactory.getInstance();
+        SimpleDiffRequest request = new SimpleDiffRequest("Sort Members Preview",
+            contentFactory.create(project, preview.originalText, JavaFileType.INSTANCE),
+            contentFactory.create(project, sortedText, JavaFileType.INSTANCE), "Current", "Sorted");
+
+        if (!new PreviewDialog(project, request).showAndGet()) {
+            return;
+        }
+
+        if (document.getModificationStamp() != preview.modificationStamp) {
+            Messages.showErrorDialog("The file was changed after the preview was built, please preview again", "Error");
+            return;
+        }
+
+        // 直接替换类体文本，结果与预览完全一致
+        WriteCommandAction.runWriteCommandAction(project, "Sort Members", null,
+            () -> document.replaceString(preview.bodyRange.getStartOffset(), preview.bodyRange.getEndOffset(),
+                preview.sortedBody));
+    }
+
+    private static class PreviewDialog extends DialogWrapper {
+        private final DiffRequestPanel diffPanel;
+
+        private PreviewDialog(Project project, DiffRequest request) {
+            super(project, true);
+            // 差异面板随对话框一起释放
+            this.diffPanel = DiffManager.getInstance().createRequestPanel(project, this.getDisposable(), null);
+            this.diffPanel.setRequest(request);
+
+            this.setTitle("Sort Members Preview");
+            this.setOKButtonText("Apply");
+            this.init();
+        }
+
+        @Override
+        protected JComponent createCenterPanel() {
+            JComponent component = this.diffPanel.getComponent();
+            component.setPreferredSize(JBUI.size(900, 600));
+            return component;
+        }
+
+        @Override
+        protected String getDimensionServiceKey() {
+            return "CodeElementSorter.PreviewDialog";
+        }
+
+        @Override
+        public JComponent getPreferredFocusedComponent() {
+            return this.diffPanel.getPreferredFocusedComponent();
+        }
+    }
+
+    private static class Preview {
+        private final TextRange bodyRange;
+
+        private final long modificationStamp;
+
+        private final String originalText;
+
+        private final String sortedBody;
+
+        private Preview(long modificationStamp, String originalText, TextRange bodyRange, String sortedBody) {
+            this.modificationStamp = modificationStamp;
+            this.originalText = originalText;
+            this.bodyRange = bodyRange;
+            this.sortedBody = sortedBody;
+        }
+    }
+}
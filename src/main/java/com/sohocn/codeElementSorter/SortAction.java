@@ -2,7 +2,11 @@ package com.sohocn.codeElementSorter;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.jetbrains.annotations.NotNull;
@@ -24,9 +28,6 @@ import com.intellij.psi.*;
  * @author longjianghu
  */
 public class SortAction extends AnAction {
-    // 单例 Comparator，避免重复创建
-    private static final CodeElementSortComparator COMPARATOR = new CodeElementSortComparator();
-
     @Override
     public void actionPerformed(@NotNull AnActionEvent e) {
         Project project = e.getProject();
@@ -92,12 +93,7 @@ public class SortAction extends AnAction {
         List<PsiMember> members;
 
         if (membersToSort == null) {
-            members = new ArrayList<>();
-            for (PsiElement element : psiClass.getChildren()) {
-                if ((element instanceof PsiField || element instanceof PsiMethod)) {
-                    members.add((PsiMember)element);
-                }
-            }
+            members = MemberGroups.collectSortableMembers(psiClass);
         } else {
             members = membersToSort;
         }
@@ -112,9 +108,20 @@ public class SortAction extends AnAction {
             return;
         }
 
+        // 已经有序时不打开写操作，避免弄脏文档、产生撤销记录和重新索引
+        Map<PsiClass, MemberGroups> plans = new HashMap<>();
+        boolean alreadySorted = membersToSort == null
+            ? this.isAlreadySorted(psiClass, sortableMembers, 0, plans)
+            : this.isSelectionAlreadySorted(psiClass, sortableMembers);
+
+        if (alreadySorted) {
+            Messages.showInfoMessage("Members are already sorted", "Info");
+            return;
+        }
+
         WriteCommandAction.runWriteCommandAction(project, () -> {
             if (membersToSort == null) {
-                this.performFullSorting(project, psiClass, sortableMembers);
+                this.performFullSorting(project, psiClass, sortableMembers, plans);
             } else {
                 this.performSelectedSorting(psiClass, membersToSort);
             }
@@ -189,7 +196,8 @@ public class SortAction extends AnAction {
 
     private void addMembersWithSpacing(@NotNull Project project, PsiClass psiClass, List<PsiElement> staticFieldCopies,
                                        List<PsiElement> regularInstanceFieldCopies, List<PsiElement> annotatedInstanceFieldCopies,
-                                       List<PsiElement> methodCopies, List<PsiElement> innerClassCopies) {
+                                       Set<PsiElement> annotatedGroupBreaks, List<PsiElement> methodCopies,
+                                       List<PsiElement> innerClassCopies) {
 
         PsiElement[] existingChildren = psiClass.getChildren();
 
@@ -212,7 +220,8 @@ public class SortAction extends AnAction {
 
                 boolean hasJavadocOrAnnotations = false;
                 if (element instanceof PsiField) {
-                    hasJavadocOrAnnotations = this.hasJavadocComment(element) || this.hasAnnotations((PsiField)element);
+                    hasJavadocOrAnnotations =
+                        MemberGroups.hasJavadocComment(element) || this.hasAnnotations((PsiField)element);
                 }
 
                 if (hasJavadocOrAnnotations && i < staticFieldCopies.size() - 1) {
@@ -239,7 +248,7 @@ public class SortAction extends AnAction {
                 PsiElement element = regularInstanceFieldCopies.get(i);
                 PsiElement addedElement = psiClass.add(element);
 
-                if (element instanceof PsiField && this.hasJavadocComment(element)
+                if (element instanceof PsiField && MemberGroups.hasJavadocComment(element)
                     && i < regularInstanceFieldCopies.size() - 1) {
                     PsiElement blankLine = this.createBlankLine(project);
                     if (blankLine != null) {
@@ -247,7 +256,7 @@ public class SortAction extends AnAction {
                     }
                 } else {
                     if (element instanceof PsiField) {
-                        this.hasJavadocComment(element);
+                        MemberGroups.hasJavadocComment(element);
                     }
                 }
                 lastAddedElement = addedElement;
@@ -266,7 +275,8 @@ public class SortAction extends AnAction {
                 PsiElement element = annotatedInstanceFieldCopies.get(i);
                 PsiElement addedElement = psiClass.add(element);
 
-                if (i < annotatedInstanceFieldCopies.size() - 1) {
+                if (i < annotatedInstanceFieldCopies.size() - 1
+                    && (annotatedGroupBreaks == null || annotatedGroupBreaks.contains(element))) {
                     PsiElement blankLine = this.createBlankLine(project);
                     if (blankLine != null) {
                         psiClass.addAfter(blankLine, addedElement);
@@ -288,14 +298,15 @@ public class SortAction extends AnAction {
                 PsiElement element = methodCopies.get(i);
                 PsiElement addedElement = psiClass.add(element);
 
-                if (element instanceof PsiMethod && this.hasJavadocComment(element) && i < methodCopies.size() - 1) {
+                if (element instanceof PsiMethod && MemberGroups.hasJavadocComment(element)
+                    && i < methodCopies.size() - 1) {
                     PsiElement blankLine = this.createBlankLine(project);
                     if (blankLine != null) {
                         psiClass.addAfter(blankLine, addedElement);
                     }
                 } else {
                     if (element instanceof PsiMethod) {
-                        this.hasJavadocComment(element);
+                        MemberGroups.hasJavadocComment(element);
                     }
                 }
                 lastAddedElement = addedElement;
@@ -439,6 +450,12 @@ public class SortAction extends AnAction {
         }
     }
 
+    private MemberGroups getPlan(PsiClass psiClass, List<PsiMember> sortableMembers,
+                                 Map<PsiClass, MemberGroups> plans) {
+        return plans.computeIfAbsent(psiClass,
+            key -> MemberGroups.create(key, sortableMembers, SortSettings.getInstance()));
+    }
+
     private List<PsiElement> getRelatedElements(PsiMember member) {
         List<PsiElement> relatedElements = new ArrayList<>();
 
@@ -459,77 +476,123 @@ public class SortAction extends AnAction {
         return field.getAnnotations().length > 0;
     }
 
-    private boolean hasJavadocComment(PsiElement element) {
-        if (element instanceof PsiDocCommentOwner) {
-            return ((PsiDocCommentOwner)element).getDocComment() != null;
+    private boolean hasExpectedSpacing(PsiElement previous, boolean blankLineRequired) {
+        PsiElement next = previous.getNextSibling();
+        long newlineCount = next instanceof PsiWhiteSpace ? next.getText().chars().filter(ch -> ch == '\n').count() : 0;
+
+        // 需要空行时必须恰好一个空行，否则保留原有间距，但超过一个空行会被清理
+        return blankLineRequired ? newlineCount == 2 : newlineCount <= 2;
+    }
+
+    /**
+     * 检查类成员是否已经是排序结果（包括空行规则），递归检查会被排序的内部类。
+     * 构建排序计划需要 O(n log n)，与现有顺序的比较是线性的；计划缓存在 plans 中，写入时直接复用
+     */
+    private boolean isAlreadySorted(PsiClass psiClass, List<PsiMember> sortableMembers, int depth,
+                                    Map<PsiClass, MemberGroups> plans) {
+        if (depth >= 3) {
+            return true;
+        }
+
+        MemberGroups groups = this.getPlan(psiClass, sortableMembers, plans);
+        List<PsiMember> expected = groups.getOrderedMembers();
+        boolean[] blankLineAfter = groups.getBlankLineAfterFlags();
+
+        int index = 0;
+        PsiElement previous = null;
+        for (PsiElement child : psiClass.getChildren()) {
+            if (!(child instanceof PsiField || child instanceof PsiMethod || child instanceof PsiClass)) {
+                continue;
+            }
+
+            if (index >= expected.size() || child != expected.get(index)) {
+                return false;
+            }
+
+            if (previous != null && !this.hasExpectedSpacing(previous, blankLineAfter[index - 1])) {
+                return false;
+            }
+
+            previous = child;
+            index++;
+        }
+
+        if (index != expected.size()) {
+            return false;
+        }
+
+        if (depth < 2) {
+            for (PsiClass innerClass : groups.getInnerClasses()) {
+                if (!this.isAlreadySorted(innerClass, MemberGroups.collectSortableMembers(innerClass), depth + 1,
+                    plans)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private boolean isSelectionAlreadySorted(PsiClass psiClass, List<PsiMember> selectedMembers) {
+        List<PsiMember> sorted = new ArrayList<>(selectedMembers);
+        MemberGroups.sortSelection(psiClass, sorted, SortSettings.getInstance());
+
+        for (int i = 0; i < sorted.size(); i++) {
+            if (sorted.get(i) != selectedMembers.get(i)) {
+                return false;
+            }
         }
-        return false;
+        return true;
     }
 
-    private void performFullSorting(@NotNull Project project, PsiClass psiClass, List<PsiMember> sortableMembers) {
-        this.performFullSortingWithDepth(project, psiClass, sortableMembers, 0);
+    private void performFullSorting(@NotNull Project project, PsiClass psiClass, List<PsiMember> sortableMembers,
+                                    Map<PsiClass, MemberGroups> plans) {
+        this.performFullSortingWithDepth(project, psiClass, sortableMembers, 0, plans);
     }
 
     /**
      * 优化版本：一次遍历完成所有分类
      */
     private void performFullSortingWithDepth(@NotNull Project project, PsiClass psiClass,
-                                             List<PsiMember> sortableMembers, int depth) {
+                                             List<PsiMember> sortableMembers, int depth,
+                                             Map<PsiClass, MemberGroups> plans) {
 
         if (depth >= 3) {
             return;
         }
 
-        // 优化：一次遍历完成分类
-        List<PsiField> staticFields = new ArrayList<>();
-        List<PsiField> regularInstanceFields = new ArrayList<>();
-        List<PsiField> annotatedInstanceFields = new ArrayList<>();
-        List<PsiMethod> methods = new ArrayList<>();
+        // 复用检查阶段已构建的排序计划
+        MemberGroups groups = this.getPlan(psiClass, sortableMembers, plans);
 
-        for (PsiMember member : sortableMembers) {
-            if (member instanceof PsiField) {
-                PsiField field = (PsiField) member;
-                if (field.hasModifierProperty(PsiModifier.STATIC)) {
-                    staticFields.add(field);
-                } else if (field.getAnnotations().length > 0) {
-                    annotatedInstanceFields.add(field);
-                } else {
-                    regularInstanceFields.add(field);
-                }
-            } else if (member instanceof PsiMethod) {
-                methods.add((PsiMethod) member);
+        // 递归排序内部类
+        List<PsiClass> innerClasses = groups.getInnerClasses();
+        if (depth < 2) {
+            for (PsiClass innerClass : innerClasses) {
+                this.performFullSortingWithDepth(project, innerClass,
+                    MemberGroups.collectSortableMembers(innerClass), depth + 1, plans);
             }
         }
 
-        // 查找内部类
-        List<PsiClass> innerClasses = new ArrayList<>();
-        for (PsiElement element : psiClass.getChildren()) {
-            if (element instanceof PsiClass && element != psiClass) {
-                innerClasses.add((PsiClass)element);
-                if (depth < 2) {
-                    List<PsiMember> innerSortableMembers = new ArrayList<>();
-                    for (PsiElement innerElement : element.getChildren()) {
-                        if ((innerElement instanceof PsiField || innerElement instanceof PsiMethod)) {
-                            innerSortableMembers.add((PsiMember)innerElement);
-                        }
-                    }
-                    this.performFullSortingWithDepth(project, (PsiClass)element, innerSortableMembers, depth + 1);
+        List<PsiElement> staticFieldCopies = this.createElementCopiesWithRelatedElements(groups.getStaticFields());
+        List<PsiElement> regularInstanceFieldCopies =
+            this.createElementCopiesWithRelatedElements(groups.getRegularInstanceFields());
+        List<PsiElement> annotatedInstanceFieldCopies;
+        Set<PsiElement> annotatedGroupBreaks = null;
+        if (groups.getPaddedGroups().isEmpty()) {
+            annotatedInstanceFieldCopies =
+                this.createElementCopiesWithRelatedElements(groups.getAnnotatedInstanceFields());
+        } else {
+            // 内存布局模式：只在填充分组之间空行
+            annotatedInstanceFieldCopies = new ArrayList<>();
+            annotatedGroupBreaks = new HashSet<>();
+            for (List<PsiField> paddedGroup : groups.getPaddedGroups()) {
+                annotatedInstanceFieldCopies.addAll(this.createElementCopiesWithRelatedElements(paddedGroup));
+                if (!annotatedInstanceFieldCopies.isEmpty()) {
+                    annotatedGroupBreaks.add(annotatedInstanceFieldCopies.get(annotatedInstanceFieldCopies.size() - 1));
                 }
             }
         }
-
-        // 使用单例 Comparator 进行排序
-        staticFields.sort(COMPARATOR);
-        regularInstanceFields.sort(COMPARATOR);
-        annotatedInstanceFields.sort(COMPARATOR);
-        methods.sort(COMPARATOR);
-
-        List<PsiElement> staticFieldCopies = this.createElementCopiesWithRelatedElements(staticFields);
-        List<PsiElement> regularInstanceFieldCopies =
-            this.createElementCopiesWithRelatedElements(regularInstanceFields);
-        List<PsiElement> annotatedInstanceFieldCopies =
-            this.createElementCopiesWithRelatedElements(annotatedInstanceFields);
-        List<PsiElement> methodCopies = this.createElementCopiesWithRelatedElements(methods);
+        List<PsiElement> methodCopies = this.createElementCopiesWithRelatedElements(groups.getMethods());
 
         List<PsiElement> innerClassCopies = new ArrayList<>(innerClasses.size());
         for (PsiClass innerClass : innerClasses) {
@@ -542,7 +605,7 @@ public class SortAction extends AnAction {
 
         this
             .addMembersWithSpacing(project, psiClass, staticFieldCopies, regularInstanceFieldCopies,
-                annotatedInstanceFieldCopies, methodCopies, innerClassCopies);
+                annotatedInstanceFieldCopies, annotatedGroupBreaks, methodCopies, innerClassCopies);
     }
 
     /**
@@ -600,8 +663,7 @@ public class SortAction extends AnAction {
         // 找到插入锚点（第一个成员）
         insertAnchor = firstMember;
 
-        // 使用单例 Comparator 排序
-        sortableMembers.sort(COMPARATOR);
+        MemberGroups.sortSelection(psiClass, sortableMembers, SortSettings.getInstance());
 
         // 只复制成员本身
         List<PsiElement> copies = new ArrayList<>(sortableMembers.size());
@@ -0,0 +1,75 @@
+package com.sohocn.codeElementSorter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.intellij.psi.codeStyle.arrangement.group.ArrangementGroupingRule;
+import com.intellij.psi.codeStyle.arrangement.match.StdArrangementEntryMatcher;
+import com.intellij.psi.codeStyle.arrangement.match.StdArrangementMatchRule;
+import com.intellij.psi.codeStyle.arrangement.model.ArrangementAtomMatchCondition;
+import com.intellij.psi.codeStyle.arrangement.model.ArrangementCompositeMatchCondition;
+import com.intellij.psi.codeStyle.arrangement.std.ArrangementSettingsToken;
+import com.intellij.psi.codeStyle.arrangement.std.StdArrangementSettings;
+import com.intellij.psi.codeStyle.arrangement.std.StdArrangementTokens;
+
+/**
+ * 将 {@link CodeElementSortComparator} 的分组规则转换为平台 Rearranger 的排列规则，
+ * 使排序可以在 Reformat Code（勾选 Rearrange code）时与格式化一起完成。
+ *
+ * @author longjianghu
+ */
+public class SortArrangementRules {
+    // 与 CodeElementSortComparator#getVisibilityPriority 保持一致
+    private static final ArrangementSettingsToken[] VISIBILITY_ORDER = {
+        StdArrangementTokens.Modifier.PUBLIC,
+        StdArrangementTokens.Modifier.PACKAGE_PRIVATE,
+        StdArrangementTokens.Modifier.PROTECTED,
+        StdArrangementTokens.Modifier.PRIVATE
+    };
+
+    private SortArrangementRules() {
+    }
+
+    /**
+     * 静态字段 → 实例字段 → 构造方法 → 方法，每组内按可见性 → 名称排序，内部类保持源码顺序排在最后。
+     *
+     * @param groupAccessors
+     *            whether getters and setters should be kept together
+     * @return the arrangement settings
+     */
+    public static StdArrangementSettings create(boolean groupAccessors) {
+        List<ArrangementGroupingRule> groupingRules = new ArrayList<>();
+        if (groupAccessors) {
+            groupingRules.add(new ArrangementGroupingRule(StdArrangementTokens.Grouping.GETTERS_AND_SETTERS));
+        }
+
+        List<StdArrangementMatchRule> matchRules = new ArrayList<>();
+        for (ArrangementSettingsToken visibility : VISIBILITY_ORDER) {
+            matchRules.add(rule(StdArrangementTokens.EntryType.FIELD, StdArrangementTokens.Modifier.STATIC, visibility));
+        }
+        for (ArrangementSettingsToken visibility : VISIBILITY_ORDER) {
+            matchRules.add(rule(StdArrangementTokens.EntryType.FIELD, visibility));
+        }
+        for (ArrangementSettingsToken visibility : VISIBILITY_ORDER) {
+            matchRules.add(rule(StdArrangementTokens.EntryType.CONSTRUCTOR, visibility));
+        }
+        for (ArrangementSettingsToken visibility : VISIBILITY_ORDER) {
+            matchRules.add(rule(StdArrangementTokens.EntryType.METHOD, StdArrangementTokens.Modifier.STATIC, visibility));
+        }
+        for (ArrangementSettingsToken visibility : VISIBILITY_ORDER) {
+            matchRules.add(rule(StdArrangementTokens.EntryType.METHOD, visibility));
+        }
+        // 内部类不设规则：未匹配的条目排在最后并保持源码顺序，与 Sort Members A-Z 一致
+
+        return StdArrangementSettings.createByMatchRules(groupingRules, matchRules);
+    }
+
+    private static StdArrangementMatchRule rule(ArrangementSettingsToken... tokens) {
+        ArrangementCompositeMatchCondition condition = new ArrangementCompositeMatchCondition();
+        for (ArrangementSettingsToken token : tokens) {
+            condition.addOperand(new ArrangementAtomMatchCondition(token));
+        }
+        return new StdArrangementMatchRule(new StdArrangementEntryMatcher(condition),
+            StdArrangementTokens.Order.BY_NAME);
+    }
+}
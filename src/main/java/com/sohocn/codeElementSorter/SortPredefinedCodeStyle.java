@@ -0,0 +1,36 @@
+package com.sohocn.codeElementSorter;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.lang.Language;
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.psi.codeStyle.CodeStyleSettings;
+import com.intellij.psi.codeStyle.PredefinedCodeStyle;
+
+/**
+ * 以预定义代码风格的形式提供排列规则：在 Java 代码风格中通过 "Set from…" 选择后只替换 Java 排列规则，
+ * 其余格式设置和当前方案保持不变，修改插件设置后可再次选择以更新规则。
+ *
+ * @author longjianghu
+ */
+public class SortPredefinedCodeStyle extends PredefinedCodeStyle {
+    public SortPredefinedCodeStyle() {
+        super("Code Element Sorter", JavaLanguage.INSTANCE);
+    }
+
+    @Override
+    public void apply(CodeStyleSettings settings) {
+        this.apply(settings, JavaLanguage.INSTANCE);
+    }
+
+    @Override
+    public void apply(CodeStyleSettings settings, @NotNull Language language) {
+        if (!language.isKindOf(JavaLanguage.INSTANCE)) {
+            return;
+        }
+
+        settings
+            .getCommonSettings(JavaLanguage.INSTANCE)
+            .setArrangementSettings(SortArrangementRules.create(SortSettings.getInstance().groupAccessorsAndOverloads));
+    }
+}
@@ -0,0 +1,56 @@
+package com.sohocn.codeElementSorter;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.util.xmlb.XmlSerializerUtil;
+
+/**
+ * The type Sort settings.
+ *
+ * @author longjianghu
+ */
+@State(name = "CodeElementSorterSettings", storages = @Storage("codeElementSorter.xml"))
+public class SortSettings implements PersistentStateComponent<SortSettings> {
+    /**
+     * 将 getFoo/isFoo/setFoo 按属性归组，重载方法按参数个数和类型排序
+     */
+    public boolean groupAccessorsAndOverloads = false;
+
+    /**
+     * 实现类的方法按所实现接口的声明顺序排列，其余方法按原规则排序
+     */
+    public boolean interfaceMethodOrder = false;
+
+    /**
+     * 实例字段按内存布局排序：long/double → int/float → short/char → byte/boolean → 引用
+     */
+    public boolean memoryLayoutFieldOrder = false;
+
+    /**
+     * 内存布局模式下，名称匹配该正则的字段与 @Contended 字段一样单独填充分组
+     */
+    public String paddedFieldPattern = "";
+
+    /**
+     * Gets instance.
+     *
+     * @return the instance
+     */
+    public static SortSettings getInstance() {
+        return ApplicationManager.getApplication().getService(SortSettings.class);
+    }
+
+    @Override
+    public SortSettings getState() {
+        return this;
+    }
+
+    @Override
+    public void loadState(@NotNull SortSettings state) {
+        XmlSerializerUtil.copyBean(state, this);
+    }
+}
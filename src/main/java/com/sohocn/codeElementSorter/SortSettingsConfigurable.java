@@ -0,0 +1,98 @@
+package com.sohocn.codeElementSorter;
+
+import javax.swing.JCheckBox;
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+
+import org.jetbrains.annotations.Nls;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.openapi.options.Configurable;
+import com.intellij.openapi.options.ConfigurationException;
+import com.intellij.util.ui.FormBuilder;
+
+/**
+ * The type Sort settings configurable.
+ *
+ * @author longjianghu
+ */
+public class SortSettingsConfigurable implements Configurable {
+    private JCheckBox groupAccessorsCheckBox;
+
+    private JCheckBox interfaceOrderCheckBox;
+
+    private JCheckBox memoryLayoutCheckBox;
+
+    private JTextField paddedPatternField;
+
+    private JPanel panel;
+
+    @Override
+    public void apply() throws ConfigurationException {
+        String paddedPattern = this.paddedPatternField.getText().trim();
+
+        if (!paddedPattern.isEmpty() && MemoryLayoutOrder.compilePattern(paddedPattern) == null) {
+            throw new ConfigurationException("Invalid padded field pattern: " + paddedPattern);
+        }
+
+        SortSettings settings = SortSettings.getInstance();
+        settings.groupAccessorsAndOverloads = this.groupAccessorsCheckBox.isSelected();
+        settings.interfaceMethodOrder = this.interfaceOrderCheckBox.isSelected();
+        settings.memoryLayoutFieldOrder = this.memoryLayoutCheckBox.isSelected();
+        settings.paddedFieldPattern = paddedPattern;
+    }
+
+    @Override
+    public @Nullable JComponent createComponent() {
+        this.groupAccessorsCheckBox = new JCheckBox("Group getters/setters by property and order overloads by parameters");
+        this.interfaceOrderCheckBox = new JCheckBox("Order implemented methods as declared in their interfaces");
+        this.memoryLayoutCheckBox = new JCheckBox("Order instance fields by memory layout (field width)");
+        this.paddedPatternField = new JTextField();
+
+        this.panel = FormBuilder
+            .createFormBuilder()
+            .addComponent(this.groupAccessorsCheckBox)
+            .addComponent(this.interfaceOrderCheckBox)
+            .addComponent(this.memoryLayoutCheckBox)
+            .addLabeledComponent("Padded field name pattern (regex, in addition to @Contended):",
+                this.paddedPatternField, true)
+            .addComponentFillVertically(new JPanel(), 0)
+            .getPanel();
+
+        this.reset();
+        return this.panel;
+    }
+
+    @Override
+    public void disposeUIResources() {
+        this.groupAccessorsCheckBox = null;
+        this.interfaceOrderCheckBox = null;
+        this.memoryLayoutCheckBox = null;
+        this.paddedPatternField = null;
+        this.panel = null;
+    }
+
+    @Override
+    public @Nls(capitalization = Nls.Capitalization.Title) String getDisplayName() {
+        return "Code Element Sorter";
+    }
+
+    @Override
+    public boolean isModified() {
+        SortSettings settings = SortSettings.getInstance();
+        return this.groupAccessorsCheckBox.isSelected() != settings.groupAccessorsAndOverloads
+            || this.interfaceOrderCheckBox.isSelected() != settings.interfaceMethodOrder
+            || this.memoryLayoutCheckBox.isSelected() != settings.memoryLayoutFieldOrder
+            || !this.paddedPatternField.getText().trim().equals(settings.paddedFieldPattern);
+    }
+
+    @Override
+    public void reset() {
+        SortSettings settings = SortSettings.getInstance();
+        this.groupAccessorsCheckBox.setSelected(settings.groupAccessorsAndOverloads);
+        this.interfaceOrderCheckBox.setSelected(settings.interfaceMethodOrder);
+        this.memoryLayoutCheckBox.setSelected(settings.memoryLayoutFieldOrder);
+        this.paddedPatternField.setText(settings.paddedFieldPattern);
+    }
+}
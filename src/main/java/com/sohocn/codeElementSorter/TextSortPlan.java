@@ -0,0 +1,205 @@
+package com.sohocn.codeElementSorter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiComment;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiMember;
+import com.intellij.psi.PsiWhiteSpace;
+
+/**
+ * 纯文本的排序计划：记录类体中各成员（连同前面的注释）的原始区间和新的顺序，
+ * 生成结果只需拼接字符串，不复制也不修改 PSI，可在后台读操作中构建。
+ *
+ * @author longjianghu
+ */
+public class TextSortPlan {
+    private final int bodyEnd;
+
+    private final int bodyStart;
+
+    private final List<Chunk> chunks = new ArrayList<>();
+
+    private final String closing;
+
+    private TextSortPlan(int bodyStart, int bodyEnd, String closing) {
+        this.bodyStart = bodyStart;
+        this.bodyEnd = bodyEnd;
+        this.closing = closing;
+    }
+
+    /**
+     * 按与 Sort Members A-Z 相同的规则构建类的排序计划，内部类最多递归 3 层。
+     *
+     * @param psiClass
+     *            the psi class
+     * @param settings
+     *            the settings
+     * @return the plan, or null if the class has no body or no sortable members
+     */
+    public static TextSortPlan create(PsiClass psiClass, SortSettings settings) {
+        return create(psiClass, settings, 0);
+    }
+
+    private static TextSortPlan create(PsiClass psiClass, SortSettings settings, int depth) {
+        PsiElement lBrace = psiClass.getLBrace();
+        PsiElement rBrace = psiClass.getRBrace();
+
+        if (lBrace == null || rBrace == null) {
+            return null;
+        }
+
+        MemberGroups groups = MemberGroups.create(psiClass, MemberGroups.collectSortableMembers(psiClass), settings);
+        List<PsiMember> ordered = groups.getOrderedMembers();
+
+        if (ordered.isEmpty()) {
+            return null;
+        }
+
+        // 大括号内侧保留原有间距（最多一个空行，与 cleanupExcessiveWhitespace 一致），计划只调整顺序
+        String closing = "\n".repeat(cappedNewlines(leadingWhitespace(rBrace))) + indentBefore(rBrace);
+        TextSortPlan plan = new TextSortPlan(lBrace.getTextRange().getEndOffset(),
+            rBrace.getTextRange().getStartOffset(), closing);
+        PsiElement afterLBrace = lBrace.getNextSibling();
+        int openingNewlines = afterLBrace instanceof PsiWhiteSpace ? cappedNewlines(afterLBrace.getText()) : 1;
+
+        // 一次遍历：成员连同前面紧邻的注释作为一个区间，其余元素保持原位置（排序后位于成员之前）
+        Set<PsiElement> memberSet = new HashSet<>(ordered);
+        Map<PsiElement, PsiElement> memberHeads = new HashMap<>(ordered.size() * 2);
+        PsiElement pendingHead = null;
+        PsiElement pendingTail = null;
+
+        for (PsiElement child = lBrace.getNextSibling(); child != null && child != rBrace;
+            child = child.getNextSibling()) {
+            if (child instanceof PsiWhiteSpace) {
+                continue;
+            }
+
+            if (child instanceof PsiComment) {
+                if (pendingHead == null) {
+                    pendingHead = child;
+                }
+                pendingTail = child;
+                continue;
+            }
+
+            PsiElement head = pendingHead != null ? pendingHead : child;
+            pendingHead = null;
+
+            if (memberSet.contains(child)) {
+                memberHeads.put(child, head);
+            } else {
+                plan.chunks.add(new Chunk(new TextRange(head.getTextRange().getStartOffset(),
+                    child.getTextRange().getEndOffset()), leadingWhitespace(head), null));
+            }
+        }
+
+        // 类末尾未附着到成员的注释
+        if (pendingHead != null) {
+            plan.chunks.add(new Chunk(new TextRange(pendingHead.getTextRange().getStartOffset(),
+                pendingTail.getTextRange().getEndOffset()), leadingWhitespace(pendingHead), null));
+        }
+
+        boolean hasKeptChunks = !plan.chunks.isEmpty();
+        boolean[] blankLineAfter = groups.getBlankLineAfterFlags();
+
+        for (int i = 0; i < ordered.size(); i++) {
+            PsiMember member = ordered.get(i);
+            PsiElement head = memberHeads.getOrDefault(member, member);
+
+            // 需要空行时固定一个空行，否则保留原有间距（最多一个空行）
+            int newlines;
+            if (i == 0) {
+                newlines = hasKeptChunks ? 2 : openingNewlines;
+            } else if (blankLineAfter[i - 1]) {
+                newlines = 2;
+            } else {
+                newlines = cappedNewlines(leadingWhitespace(head));
+            }
+
+            TextSortPlan nested = null;
+            if (member instanceof PsiClass && depth < 2) {
+                nested = create((PsiClass) member, settings, depth + 1);
+            }
+
+            String separator = "\n".repeat(newlines) + indentBefore(head);
+            plan.chunks.add(new Chunk(new TextRange(head.getTextRange().getStartOffset(),
+                member.getTextRange().getEndOffset()), separator, nested));
+        }
+
+        return plan;
+    }
+
+    private static int cappedNewlines(String whitespace) {
+        int newlines = (int) whitespace.chars().filter(ch -> ch == '\n').count();
+        return Math.max(1, Math.min(2, newlines));
+    }
+
+    private static String indentBefore(PsiElement element) {
+        String whitespace = leadingWhitespace(element);
+        return whitespace.substring(whitespace.lastIndexOf('\n') + 1);
+    }
+
+    private static String leadingWhitespace(PsiElement element) {
+        PsiElement prevSibling = element.getPrevSibling();
+        return prevSibling instanceof PsiWhiteSpace ? prevSibling.getText() : "";
+    }
+
+    /**
+     * 类体（左右大括号之间）在原文本中的区间。
+     *
+     * @return the body range
+     */
+    public TextRange getBodyRange() {
+        return new TextRange(this.bodyStart, this.bodyEnd);
+    }
+
+    /**
+     * 生成排序后的类体文本，用于替换 {@link #getBodyRange()}。
+     *
+     * @param text
+     *            the text the plan was built from
+     * @return the sorted body
+     */
+    public String renderBody(CharSequence text) {
+        StringBuilder result = new StringBuilder(this.bodyEnd - this.bodyStart + this.chunks.size() * 2);
+        this.appendBody(text, result);
+        return result.toString();
+    }
+
+    private void appendBody(CharSequence text, StringBuilder result) {
+        for (Chunk chunk : this.chunks) {
+            result.append(chunk.separator);
+
+            if (chunk.nested == null) {
+                result.append(text, chunk.range.getStartOffset(), chunk.range.getEndOffset());
+            } else {
+                result.append(text, chunk.range.getStartOffset(), chunk.nested.bodyStart);
+                chunk.nested.appendBody(text, result);
+                result.append(text, chunk.nested.bodyEnd, chunk.range.getEndOffset());
+            }
+        }
+        result.append(this.closing);
+    }
+
+    private static class Chunk {
+        private final TextSortPlan nested;
+
+        private final TextRange range;
+
+        private final String separator;
+
+        private Chunk(TextRange range, String separator, TextSortPlan nested) {
+            this.range = range;
+            this.separator = separator;
+            this.nested = nested;
+        }
+    }
+}